@@ -0,0 +1,266 @@
+/*
+ * Generatore di programmi ASP specifici per istanza (estensione di ASP/15puzzle.lp a board N x M).
+ *
+ * `15puzzle.lp` fissa la board 4x4, i fatti `cell/4` iniziali e l'orizzonte `#const t=24`; la scelta libera di
+ * `cell(T,X,Y,V)` su tutti i tempi, posizioni e valori fa esplodere il grounding appena t supera la ventina.
+ * Questa classe produce, a partire da una `Board`, un programma con:
+ *
+ * - Orizzonte: limite inferiore h = manhattan() + linearConflicts(), limite superiore dalla lunghezza di una
+ *   soluzione sub-ottima veloce (realtimeSolver). La lunghezza di ogni soluzione ha la stessa parità della distanza
+ *   di Manhattan della cella vuota dalla sua posizione finale, quindi si provano solo gli orizzonti con quella parità.
+ *   h è ammissibile perché `linearConflicts()` conta il numero minimo di pedine da togliere da ogni linea; in ogni
+ *   caso il limite inferiore non supera mai quello superiore (che è la lunghezza di una soluzione reale), così
+ *   almeno un orizzonte soddisfacibile viene sempre provato.
+ * - Restrizioni di dominio `dom(T,X,Y,V)`: il valore V può stare in (X,Y) al tempo T solo se la distanza di
+ *   Manhattan dalla sua cella iniziale è <= T e quella dalla sua cella finale è <= t - T (ogni pedina si sposta di
+ *   al più una cella per mossa). Per la cella vuota, che si sposta a ogni mossa, serve anche la parità:
+ *   (X + Y) ha la parità di (X0 + Y0 + T). Le regole che derivano `cell/4` valgono solo dentro `dom`.
+ * - Nessuna mossa che annulla la precedente: dato che ogni istante ha esattamente una mossa, il primo orizzonte
+ *   soddisfacibile (provando gli orizzonti in ordine crescente a partire da un limite inferiore ammissibile) è la
+ *   lunghezza ottima, che non contiene inversioni. Per lo stesso motivo il #minimize di 15puzzle.lp non serve.
+ *   Se clingo si ferma per il limite di tempo (esito UNKNOWN) l'ottimalità non è garantita.
+ *
+ * Nel programma la cella vuota vale sempre 0 (come in 15puzzle.lp), qualunque sia il valore `empty` della Board.
+ *
+ * `solve` esegue il binario clingo locale orizzonte per orizzonte (`-c t=H`) e riporta per ciascuno esito,
+ * dimensione del grounding (regole e atomi dalle statistiche di clingo) e tempo. Non si usa il solving incrementale
+ * (multi-shot, #program step) di clingo: `dom/4` dipende da t - T, cioè dall'orizzonte, e proprio questo vincolo è
+ * quello che riduce il grounding. In un programma incrementale i passi già grounded non si possono restringere quando
+ * t cresce, quindi si perderebbe il taglio; si preferisce rifare il grounding (piccolo) a ogni orizzonte.
+ * Se la soluzione veloce non è stata trovata gli orizzonti si fermano comunque a UPPER_BOUND_MOVES.
+ *
+ * L'esito viene letto dal codice di uscita di clingo (10 soddisfacibile, 20 insoddisfacibile, 30 ottimo, 0 nessun
+ * esito; +1 se interrotto, es. per --time-limit); ogni altro codice (errore di sintassi o di grounding, memoria
+ * esaurita, crash) diventa una IOException con l'output di clingo.
+ */
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.regex.*;
+
+public class AspGenerator {
+    private static final String[] DIRECTIONS = {"up", "down", "left", "right"};  // stesso ordine di Board.SU ... DESTRA
+    private static final int UPPER_BOUND_MOVES = 5000;  // oltre, la soluzione sub-ottima non è un limite utile
+
+    private final Board board;
+    private final int N, M, empty;
+    public final int lowerBound;
+    public final int upperBound;  // -1 se la soluzione veloce non è stata trovata
+
+    // Esito di una chiamata a clingo su un orizzonte
+    public static class Run {
+        public final int horizon;
+        public final String result;
+        public final long rules, atoms;
+        public final double seconds;
+        public final List<String> moves;
+
+        Run(int horizon, String result, long rules, long atoms, double seconds, List<String> moves) {
+            this.horizon = horizon;
+            this.result = result;
+            this.rules = rules;
+            this.atoms = atoms;
+            this.seconds = seconds;
+            this.moves = moves;
+        }
+
+        @Override public String toString() {
+            return String.format("t=%d  %s  regole=%d  atomi=%d  tempo=%.3fs", horizon, result, rules, atoms, seconds);
+        }
+    }
+
+    private int[][] generateFinal(int N,int M) {
+        int[][] f = new int[N][M]; int c=1;
+        for(int i=0;i<N;i++) for(int j=0;j<M;j++) f[i][j] = c++;
+        return f;
+    }
+
+    public AspGenerator(Board board, int N, int M, int empty) {
+        this.board = board;
+        this.N = N;
+        this.M = M;
+        this.empty = empty;
+
+        realtimeSolver fast = new realtimeSolver(board, N, M, empty, realtimeSolver.DEFAULT_NODE_BUDGET,
+            realtimeSolver.DEFAULT_TIME_BUDGET, realtimeSolver.DEFAULT_TABLE_CAPACITY, UPPER_BOUND_MOVES, dir -> { });
+        this.upperBound = fast.moves();
+
+        int lower = board.manhattan() + board.linearConflicts();
+        if ((lower - blankDistance()) % 2 != 0) lower++;  // parità della cella vuota
+        if (upperBound >= 0) lower = Math.min(lower, upperBound);  // upperBound ha già la parità giusta
+        this.lowerBound = lower;
+    }
+
+    // Distanza di Manhattan della cella vuota dalla sua posizione finale (cella empty - 1)
+    private int blankDistance() {
+        for (int i = 0; i < N; i++)
+            for (int j = 0; j < M; j++)
+                if (board.board[i][j] == empty)
+                    return Math.abs(i - (empty - 1) / M) + Math.abs(j - (empty - 1) % M);
+        throw new IllegalArgumentException("Cella vuota non presente nella board");
+    }
+
+    private int asp(int value) {
+        return value == empty ? 0 : value;
+    }
+
+    // Programma per l'istanza; l'orizzonte di default è il limite inferiore (sovrascrivibile con -c t=H)
+    public String program() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("%%% Generato da AspGenerator per una board ").append(N).append("x").append(M).append("\n");
+        sb.append("%%% Limite inferiore: ").append(lowerBound).append(", limite superiore: ").append(upperBound).append("\n");
+        sb.append("#const t=").append(lowerBound).append(".\n");
+        sb.append("tempo(0..t).\n");
+        sb.append("row(0..").append(N - 1).append("). col(0..").append(M - 1).append(").\n");
+        sb.append("%cell(tempo T, riga X, colonna Y, valore V)\n");
+
+        sb.append("%%% Input\n");
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < M; j++) {
+                sb.append("cell(0,").append(i).append(",").append(j).append(",").append(asp(board.board[i][j])).append("). ");
+            }
+            sb.append("\n");
+        }
+        sb.append("init(X,Y,V) :- cell(0,X,Y,V).\n");
+
+        sb.append("%%% Goal\n");
+        int[][] goal = generateFinal(N, M);
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < M; j++) {
+                sb.append("target(").append(i).append(",").append(j).append(",").append(asp(goal[i][j])).append("). ");
+            }
+            sb.append("\n");
+        }
+        sb.append(":- target(X,Y,V), not cell(t,X,Y,V).\n\n");
+
+        sb.append("%%% Domini raggiungibili: distanza dalla cella iniziale <= T e dalla cella finale <= t-T\n");
+        sb.append("dom(T,X,Y,V) :- tempo(T), row(X), col(Y), init(X0,Y0,V), target(X1,Y1,V), V != 0,\n");
+        sb.append("                |X-X0|+|Y-Y0| <= T, |X-X1|+|Y-Y1| <= t-T.\n");
+        sb.append("% la cella vuota si sposta a ogni mossa: conta anche la parita'\n");
+        sb.append("dom(T,X,Y,0) :- tempo(T), row(X), col(Y), init(X0,Y0,0), target(X1,Y1,0),\n");
+        sb.append("                |X-X0|+|Y-Y0| <= T, |X-X1|+|Y-Y1| <= t-T, (X+Y+X0+Y0+T) \\ 2 = 0.\n\n");
+
+        sb.append("%%% Una mossa (sposta il buco!)\n");
+        sb.append("1{ move(T,up); move(T,down); move(T,left); move(T,right)}1 :- tempo(T), tempo(T+1).\n\n");
+        sb.append("hole(T,X,Y) :- cell(T,X,Y,0).\n\n");
+        sb.append("% Mosse proibite\n");
+        sb.append(":- move(T,up),    hole(T,0,Y).\n");
+        sb.append(":- move(T,down),  hole(T,").append(N - 1).append(",Y).\n");
+        sb.append(":- move(T,left),  hole(T,X,0).\n");
+        sb.append(":- move(T,right), hole(T,X,").append(M - 1).append(").\n");
+        sb.append("% Nessuna mossa che annulla la precedente\n");
+        sb.append(":- move(T,up),    move(T+1,down).\n");
+        sb.append(":- move(T,down),  move(T+1,up).\n");
+        sb.append(":- move(T,left),  move(T+1,right).\n");
+        sb.append(":- move(T,right), move(T+1,left).\n\n");
+
+        sb.append("% Effetti\n");
+        sb.append("moved(T,X-1,Y) :- hole(T,X,Y), move(T,up).\n");
+        sb.append("moved(T,X+1,Y) :- hole(T,X,Y), move(T,down).\n");
+        sb.append("moved(T,X,Y-1) :- hole(T,X,Y), move(T,left).\n");
+        sb.append("moved(T,X,Y+1) :- hole(T,X,Y), move(T,right).\n\n");
+        sb.append("cell(T+1,X,Y,0)   :- moved(T,X,Y), dom(T+1,X,Y,0).\n");
+        sb.append("cell(T+1,X1,Y1,V) :- hole(T,X1,Y1), moved(T,X2,Y2), cell(T,X2,Y2,V), dom(T+1,X1,Y1,V).\n\n");
+
+        sb.append("% Inerzia\n");
+        sb.append("affected(T,X,Y) :- hole(T,X,Y).\n");
+        sb.append("affected(T,X,Y) :- moved(T,X,Y).\n");
+        sb.append("cell(T+1,X,Y,V) :- cell(T,X,Y,V), not affected(T,X,Y), tempo(T+1), dom(T+1,X,Y,V).\n\n");
+
+        sb.append("#show move/2.\n");
+        return sb.toString();
+    }
+
+    // Prova gli orizzonti dal limite inferiore al superiore (passo 2) fino al primo soddisfacibile
+    public List<Run> solve(String clingo, Path file, int timeLimitSeconds, PrintStream log) throws IOException, InterruptedException {
+        Files.write(file, program().getBytes(java.nio.charset.StandardCharsets.US_ASCII));
+        int last = upperBound >= 0 ? upperBound : UPPER_BOUND_MOVES;
+        List<Run> runs = new ArrayList<>();
+        for (int h = lowerBound; h <= last; h += 2) {
+            Run run = runClingo(clingo, file, h, timeLimitSeconds);
+            runs.add(run);
+            if (log != null) log.println(run);
+            if (run.result.equals("SATISFIABLE") || run.result.equals("UNKNOWN")) break;
+        }
+        return runs;
+    }
+
+    private Run runClingo(String clingo, Path file, int horizon, int timeLimitSeconds) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(Arrays.asList(clingo, file.toString(), "-c", "t=" + horizon, "--stats"));
+        if (timeLimitSeconds > 0) command.add("--time-limit=" + timeLimitSeconds);
+        Process p = new ProcessBuilder(command).redirectErrorStream(true).start();
+
+        StringBuilder out = new StringBuilder();
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
+            String line;
+            while ((line = r.readLine()) != null) out.append(line).append("\n");
+        }
+        int exit = p.waitFor();
+        String text = out.toString();
+
+        String result;
+        switch (exit) {
+            case 10: case 11: case 30: result = "SATISFIABLE"; break;
+            case 20:                   result = "UNSATISFIABLE"; break;
+            case 0: case 1:            result = "UNKNOWN"; break;  // nessun esito (es. limite di tempo)
+            default:
+                throw new IOException("clingo terminato con codice " + exit + " (t=" + horizon + "):\n" + text);
+        }
+        List<String> moves = new ArrayList<>();
+        Matcher m = Pattern.compile("move\\((\\d+),(\\w+)\\)").matcher(text);
+        SortedMap<Integer, String> byTime = new TreeMap<>();
+        while (m.find()) byTime.put(Integer.parseInt(m.group(1)), m.group(2));
+        moves.addAll(byTime.values());
+        return new Run(horizon, result, stat(text, "Rules"), stat(text, "Atoms"), time(text), moves);
+    }
+
+    // Righe di --stats nella forma "Rules        : 3060       (Original: 3162)"; ancorate a inizio riga perché
+    // "Time" compare anche in "CPU Time" e i nomi possono comparire nelle risposte stampate
+    private static long stat(String text, String name) {
+        Matcher m = Pattern.compile("(?m)^" + name + "\\s*:\\s*(\\d+)").matcher(text);
+        return m.find() ? Long.parseLong(m.group(1)) : -1;
+    }
+
+    // "Time         : 0.012s (Solving: 0.00s 1st Model: 0.00s Unsat: 0.00s)": tempo totale (wall clock)
+    private static double time(String text) {
+        Matcher m = Pattern.compile("(?m)^Time\\s*:\\s*([\\d.]+)s").matcher(text);
+        return m.find() ? Double.parseDouble(m.group(1)) : -1;
+    }
+
+    // Converte le mosse di clingo nelle direzioni di Board (per confrontarle con i risolutori Java)
+    public static int[] directions(List<String> moves) {
+        int[] dirs = new int[moves.size()];
+        for (int i = 0; i < dirs.length; i++) dirs[i] = Arrays.asList(DIRECTIONS).indexOf(moves.get(i));
+        return dirs;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Scanner sc=new Scanner(System.in);
+        System.out.print("Righe N: "); int N=sc.nextInt();
+        System.out.print("Colonne M: "); int M=sc.nextInt();
+        System.out.print("Valore empty: "); int empty=sc.nextInt();
+        int[][] tiles=new int[N][M]; System.out.println("Inserisci matrice:");
+        for(int i=0;i<N;i++) for(int j=0;j<M;j++) tiles[i][j]=sc.nextInt();
+        Board b=new Board(tiles,N,M,empty);
+        if(!b.isSolvable()){ System.out.println("Non risolvibile"); return;}
+
+        Path file = Paths.get(args.length > 0 ? args[0] : "istanza.lp");
+        String clingo = args.length > 1 ? args[1] : "clingo";
+        int limit = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+        AspGenerator gen = new AspGenerator(b, N, M, empty);
+        System.out.println("Orizzonte: da " + gen.lowerBound + " a " + gen.upperBound);
+        List<Run> runs;
+        try {
+            runs = gen.solve(clingo, file, limit, System.out);
+        } catch (IOException e) {
+            System.out.println("Errore eseguendo " + clingo + " (programma scritto in " + file + "): " + e.getMessage());
+            return;
+        }
+        Run last = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+        if (last != null && last.result.equals("SATISFIABLE")) {
+            System.out.println("Mosse: " + last.horizon + " " + last.moves);
+        }
+    }
+}
@@ -348,56 +348,60 @@ public class Board {
     //conflitto lineare di colonna: due pedine che sono entrambe nella stessa colonna, la quale è anche la colonna in cui devono stare
                                 //alla fine di tutto, sono in conflitto lineare se non sono nella riga giusta, cioè l'uno impedisce all'
                                 //altro di andare nella posizione corretta
-    //la somma dei due valori moltiplicata per 2(numero di mosse in più che aggiunge ogni conflitto) restituisce il valore del linear conflict. 
+    //per ogni riga/colonna non si contano tutte le coppie invertite ma il numero minimo di pedine da togliere dalla
+    //linea perché le rimanenti siano in ordine (lunghezza della linea meno la più lunga sottosequenza crescente delle
+    //posizioni obiettivo): contare le coppie sovrastima, es. tre pedine invertite sono 3 coppie ma bastano 2 pedine.
+    //ogni pedina tolta implica 2 mosse in più: la somma moltiplicata per 2 è il valore del linear conflict, e
+    //manhattan + linear conflict resta un limite inferiore (euristica ammissibile).
 
     //l'uso del linear conflict risolve in tempo estremamente più veloce situazioni prima quasi irrisolvibili. 
 
 
-    //calcola il numero di conflitti lineari sulle righe
+    //numero minimo di pedine da togliere da una linea: keys[0..k) sono le posizioni obiettivo lungo la linea,
+    //nell'ordine in cui le pedine si trovano ora; restituisce k - LIS(keys)
+    public static int lineConflicts(int[] keys, int k){
+        int[] tails = new int[k];
+        int length = 0;
+        for(int i=0; i<k; i++){
+            int lo = 0, hi = length;
+            while(lo < hi){
+                int mid = (lo + hi) >>> 1;
+                if(tails[mid] < keys[i]) lo = mid + 1; else hi = mid;
+            }
+            tails[lo] = keys[i];
+            if(lo == length) length++;
+        }
+        return k - length;
+    }
+
+    //calcola il numero di pedine in conflitto lineare sulle righe
     public int countLCrow(int row){
-        int conflicts = 0; 
+        int[] keys = new int[this.secondDimension];
+        int k = 0;
         for(int i=0; i<this.secondDimension; i++){
             int tile = this.board[row][i]; 
             if(tile == this.empty) continue; //cerco una pedina diversa dalla vuota
             int goalRow = (tile - 1)/this.secondDimension;
             if(goalRow != row) continue; //che è nella riga corretta
-
-            for(int j=i+1; j<this.secondDimension; j++){
-                int tile2 = this.board[row][j]; 
-                if(tile2 == tile) continue; //non deve essere uguale a quella sopra
-                if(tile2 == this.empty) continue; //cerco una seconda pedina diversa dalla vuota
-                int goalRow2 = (tile2 - 1)/this.secondDimension;
-                if(goalRow2 != row) continue; //che è nella riga corretta
-
-                if (tile > tile2) conflicts++; //se sono invertiti allora c'è un conflitto
-            }
-
+            keys[k++] = (tile - 1)%this.secondDimension; //colonna obiettivo
         }
 
-        return conflicts; 
+        return lineConflicts(keys, k); 
     }
 
-    //calcola il numero di conflitti lineari sulle colonne
+    //calcola il numero di pedine in conflitto lineare sulle colonne
     public int countLCcol(int col){
-        int conflicts = 0; 
+        int[] keys = new int[this.firstDimension];
+        int k = 0;
         for(int i=0; i<this.firstDimension; i++){
             int tile = this.board[i][col]; 
             if(tile == this.empty) continue; //cerco una pedina diversa dalla vuota
             int goalCol = (tile - 1)%this.secondDimension;
-            if(goalCol != col) continue; //che è nella riga corretta
-
-            for(int j=i+1; j<this.firstDimension; j++){
-                int tile2 = this.board[j][col]; 
-                //if(tile2 == tile) continue; //non deve essere uguale a quella sopra
-                if(tile2 == this.empty) continue; //cerco una seconda pedina diversa dalla vuota
-                int goalCol2 = (tile2 - 1)%this.secondDimension;
-                if(goalCol2 != col) continue; //che è nella riga corretta
-
-                if (tile > tile2) conflicts++; //se sono invertiti allora c'è un conflitto
-            }
+            if(goalCol != col) continue; //che è nella colonna corretta
+            keys[k++] = (tile - 1)/this.secondDimension; //riga obiettivo
         }
 
-        return conflicts; 
+        return lineConflicts(keys, k); 
     }
 
     //calcola il numero di conflitti lineari
@@ -465,27 +469,48 @@ public class Board {
         return sb.toString();
     }
 
-    public Iterable<Board> neighbors() {
-        List<Board> neighbors = new ArrayList<>();
+    // Direzioni in cui può spostarsi la cella vuota, nello stesso ordine usato da neighbors()
+    public static final int SU = 0, GIU = 1, SINISTRA = 2, DESTRA = 3;
+    private static final int[] dRow = {-1, 1, 0, 0};  // Su, giù, sinistra, destra
+    private static final int[] dCol = {0, 0, -1, 1};
+
+    // Cella (indice in ordine di riga) raggiunta dalla cella vuota in `cell` con la mossa direction su una board
+    // N x M, -1 se la mossa esce dalla board. Usata dai risolutori che lavorano su array piatti invece che su Board
+    public static int step(int cell, int direction, int N, int M) {
+        int newRow = cell / M + dRow[direction];
+        int newCol = cell % M + dCol[direction];
+        if (newRow < 0 || newRow >= N || newCol < 0 || newCol >= M) return -1;
+        return newRow * M + newCol;
+    }
+
+    // Restituisce la mossa opposta (es. SU <-> GIU)
+    public static int inverse(int direction) {
+        return direction ^ 1;
+    }
+
+    // Applica una singola mossa della cella vuota, null se la mossa esce dalla board
+    public Board move(int direction) {
         Pair emptyCell = pebbles.get(empty);  // Posizione della cella vuota
         int row = emptyCell.first;
         int col = emptyCell.second;
+        int newRow = row + dRow[direction];
+        int newCol = col + dCol[direction];
 
-        int[] dRow = {-1, 1, 0, 0};  // Su, giù, sinistra, destra
-        int[] dCol = {0, 0, -1, 1};
+        if (newRow < 0 || newRow >= this.firstDimension || newCol < 0 || newCol >= this.secondDimension) return null;
 
-        //itero sulle 4 direzioni possibili!!!!!!
-        for (int i = 0; i < 4; i++) {  // Ciclo corretto: 4 direzioni
-            int newRow = row + dRow[i];
-            int newCol = col + dCol[i];
+        int[][] newTiles = copyBoard();
+        newTiles[row][col] = newTiles[newRow][newCol];
+        newTiles[newRow][newCol] = empty;
+        return new Board(newTiles, this.firstDimension, this.secondDimension, empty);
+    }
 
-            if (newRow >= 0 && newRow < this.firstDimension && newCol >= 0 && newCol < this.secondDimension) {
-                int[][] newTiles = copyBoard();
-                newTiles[row][col] = newTiles[newRow][newCol];
-                newTiles[newRow][newCol] = empty;
+    public Iterable<Board> neighbors() {
+        List<Board> neighbors = new ArrayList<>();
 
-                neighbors.add(new Board(newTiles, this.firstDimension, secondDimension, empty));
-            }
+        //itero sulle 4 direzioni possibili!!!!!!
+        for (int i = 0; i < 4; i++) {  // Ciclo corretto: 4 direzioni
+            Board next = move(i);
+            if (next != null) neighbors.add(next);
         }
 
         return neighbors;
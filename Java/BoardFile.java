@@ -0,0 +1,394 @@
+/*
+ * Formato binario compatto per corpora di istanze (ed eventuali soluzioni) di sliding puzzle N x M.
+ *
+ * Layout del file (interi big-endian):
+ * ------------------------------------
+ *   header:  "PZL2" | int N | int M | int empty | byte bit per cella | int maxMoves (0 = senza soluzioni)
+ *   record:  board impacchettata: N*M celle da `bits` bit ciascuna (valore - 1), arrotondata al byte
+ *            [solo se maxMoves > 0] int numero di mosse | maxMoves mosse a 2 bit (direzioni di Board.SU ... DESTRA),
+ *            slot arrotondato al byte e riempito di zeri oltre il numero di mosse
+ *
+ * Tutti i record hanno larghezza fissa (anche con le soluzioni, che occupano sempre lo slot di maxMoves mosse), quindi
+ * l'i-esimo record è accessibile direttamente. Il `Reader` mappa il file in memoria (FileChannel.map) e legge le celle
+ * direttamente dal buffer, senza parsing per record: `cell(i, k)` non alloca nulla, `board(i)` e `solution(i)`
+ * costruiscono il risultato solo quando serve. Il `Writer` accoda record a un file esistente (verificando che l'header
+ * sia compatibile) o ne crea uno nuovo, e rifiuta con IllegalArgumentException i valori che non entrano nel formato.
+ * In lettura un numero di mosse o un valore di cella fuori dal formato (file corrotto) diventa una
+ * UncheckedIOException, dato che gli accessori non dichiarano eccezioni controllate.
+ *
+ * Convertitori (anche da riga di comando, vedi `main`), che conservano le eventuali soluzioni:
+ * - testo: prima riga "N M empty" (più maxMoves se ci sono soluzioni), poi le board una dopo l'altra come
+ *   nell'input di astarSolver/idastar; con le soluzioni ogni board è seguita da una riga "k d1 ... dk"
+ *   (numero di mosse e direzioni),
+ * - JSON: array di board nel formato di `Board.toJSON()`; con le soluzioni array di oggetti
+ *   {"board": ..., "moves": [d1, ..., dk]}.
+ *
+ * Il mapping usa un solo MappedByteBuffer, quindi il file deve stare sotto i 2 GB.
+ */
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.regex.*;
+
+public class BoardFile {
+    private static final int MAGIC = 0x505A4C32;  // "PZL2"
+    private static final int HEADER_SIZE = 21;
+
+    public final int N;
+    public final int M;
+    public final int empty;
+    public final int bits;
+    public final int maxMoves;
+    public final boolean withSolutions;
+    public final int boardBytes;
+    public final int recordBytes;
+
+    // maxMoves: lunghezza massima delle soluzioni memorizzate, 0 per un file di sole board
+    public BoardFile(int N, int M, int empty, int maxMoves) {
+        if (N < 1 || M < 1) throw new IllegalArgumentException("Dimensioni non valide: " + N + "x" + M);
+        if (empty < 1 || empty > N * M) throw new IllegalArgumentException("Valore empty " + empty + " fuori da 1.." + N * M);
+        if (maxMoves < 0) throw new IllegalArgumentException("maxMoves negativo: " + maxMoves);
+        this.N = N;
+        this.M = M;
+        this.empty = empty;
+        this.maxMoves = maxMoves;
+        this.withSolutions = maxMoves > 0;
+        this.bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(N * M - 1));
+        this.boardBytes = (N * M * bits + 7) / 8;
+        this.recordBytes = boardBytes + (withSolutions ? 4 + (maxMoves + 3) / 4 : 0);
+    }
+
+    // Record letto dal file: board (costruita al momento) e mosse della soluzione, null se assenti
+    public static class Record {
+        public final Board board;
+        public final int[] solution;
+
+        Record(Board board, int[] solution) {
+            this.board = board;
+            this.solution = solution;
+        }
+    }
+
+    // Converte una sequenza di board (come quella di solution()) nelle direzioni della cella vuota
+    public static int[] directions(Iterable<Board> path, int empty) {
+        List<Integer> dirs = new ArrayList<>();
+        int[] prev = null;
+        for (Board b : path) {
+            int[] hole = find(b, empty);
+            if (prev != null) {
+                if (hole[0] < prev[0]) dirs.add(Board.SU);
+                else if (hole[0] > prev[0]) dirs.add(Board.GIU);
+                else if (hole[1] < prev[1]) dirs.add(Board.SINISTRA);
+                else dirs.add(Board.DESTRA);
+            }
+            prev = hole;
+        }
+        int[] result = new int[dirs.size()];
+        for (int i = 0; i < result.length; i++) result[i] = dirs.get(i);
+        return result;
+    }
+
+    private static int[] find(Board b, int value) {
+        for (int i = 0; i < b.firstDimension; i++)
+            for (int j = 0; j < b.secondDimension; j++)
+                if (b.board[i][j] == value) return new int[]{i, j};
+        throw new IllegalArgumentException("Valore " + value + " non presente nella board");
+    }
+
+    public static class Writer implements Closeable {
+        private final BoardFile format;
+        private final DataOutputStream out;
+
+        // Apre il file in append; se non esiste (o è vuoto) scrive l'header
+        public Writer(Path path, BoardFile format) throws IOException {
+            this.format = format;
+            if (Files.exists(path) && Files.size(path) > 0) {
+                BoardFile existing = readHeader(path);
+                if (existing.N != format.N || existing.M != format.M || existing.empty != format.empty
+                        || existing.maxMoves != format.maxMoves) {
+                    throw new IOException("Header incompatibile in " + path);
+                }
+                out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.APPEND)));
+            } else {
+                out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+                out.writeInt(MAGIC);
+                out.writeInt(format.N);
+                out.writeInt(format.M);
+                out.writeInt(format.empty);
+                out.writeByte(format.bits);
+                out.writeInt(format.maxMoves);
+            }
+        }
+
+        public void write(Board b) throws IOException {
+            write(b, new int[0]);
+        }
+
+        // Il record viene validato per intero prima di scrivere, così un errore non lascia record troncati nel file
+        public void write(Board b, int[] solution) throws IOException {
+            if (b.firstDimension != format.N || b.secondDimension != format.M) {
+                throw new IllegalArgumentException("Board " + b.firstDimension + "x" + b.secondDimension + " in un file " + format.N + "x" + format.M);
+            }
+            if (solution.length > format.maxMoves) {
+                throw new IllegalArgumentException("Soluzione di " + solution.length + " mosse, il file ne ammette al massimo " + format.maxMoves);
+            }
+            for (int d : solution) {
+                if (d < Board.SU || d > Board.DESTRA) throw new IllegalArgumentException("Direzione non valida: " + d);
+            }
+            boolean[] seen = new boolean[format.N * format.M + 1];
+            for (int[] row : b.board) {
+                for (int v : row) {
+                    if (v < 1 || v > format.N * format.M) throw new IllegalArgumentException("Valore " + v + " fuori da 1.." + format.N * format.M);
+                    if (seen[v]) throw new IllegalArgumentException("Valore " + v + " ripetuto nella board");
+                    seen[v] = true;
+                }
+            }
+
+            byte[] packed = new byte[format.boardBytes];
+            int k = 0;
+            for (int[] row : b.board) {
+                for (int v : row) {
+                    int value = v - 1;
+                    for (int bit = 0; bit < format.bits; bit++, k++) {
+                        if ((value >> bit & 1) != 0) packed[k >> 3] |= (byte) (1 << (k & 7));
+                    }
+                }
+            }
+            out.write(packed);
+
+            if (format.withSolutions) {
+                byte[] moves = new byte[(format.maxMoves + 3) / 4];
+                for (int i = 0; i < solution.length; i++) moves[i >> 2] |= (byte) (solution[i] << ((i & 3) * 2));
+                out.writeInt(solution.length);
+                out.write(moves);
+            }
+        }
+
+        @Override public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    public static class Reader implements Closeable, Iterable<Record> {
+        public final BoardFile format;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        public Reader(Path path) throws IOException {
+            this.format = readHeader(path);
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if ((buffer.limit() - HEADER_SIZE) % format.recordBytes != 0) {
+                channel.close();
+                throw new IOException("Record troncato in " + path);
+            }
+        }
+
+        public int count() {
+            return (buffer.limit() - HEADER_SIZE) / format.recordBytes;
+        }
+
+        // Valore della cella k (in ordine di riga) dell'i-esima board, letto direttamente dal buffer
+        public int cell(int i, int k) {
+            return cellAt(offset(i), k);
+        }
+
+        public Board board(int i) {
+            return boardAt(offset(i));
+        }
+
+        // Mosse della soluzione dell'i-esimo record, null se il file non ha soluzioni
+        public int[] solution(int i) {
+            if (!format.withSolutions) return null;
+            int offset = offset(i) + format.boardBytes;
+            int length = buffer.getInt(offset);
+            if (length < 0 || length > format.maxMoves) {
+                throw corrupt("record " + i + ": " + length + " mosse, il file ne ammette al massimo " + format.maxMoves);
+            }
+            int[] solution = new int[length];
+            offset += 4;
+            for (int m = 0; m < solution.length; m++) {
+                solution[m] = buffer.get(offset + (m >> 2)) >> ((m & 3) * 2) & 3;
+            }
+            return solution;
+        }
+
+        // Lettura sequenziale di tutti i record, con le eventuali soluzioni
+        @Override public Iterator<Record> iterator() {
+            return new Iterator<Record>() {
+                private int i = 0;
+
+                @Override public boolean hasNext() {
+                    return i < count();
+                }
+
+                @Override public Record next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    Record rec = new Record(board(i), solution(i));
+                    i++;
+                    return rec;
+                }
+            };
+        }
+
+        private int offset(int i) {
+            if (i < 0 || i >= count()) throw new IndexOutOfBoundsException("Record " + i + " su " + count());
+            return HEADER_SIZE + i * format.recordBytes;
+        }
+
+        private int cellAt(int offset, int k) {
+            int bitPos = k * format.bits;
+            int value = 0;
+            for (int bit = 0; bit < format.bits; bit++, bitPos++) {
+                if ((buffer.get(offset + (bitPos >> 3)) >> (bitPos & 7) & 1) != 0) value |= 1 << bit;
+            }
+            // `bits` può avere codici in più (3x3 usa 4 bit per 9 valori)
+            if (value >= format.N * format.M) throw corrupt("cella " + k + " con valore " + (value + 1) + " fuori da 1.." + format.N * format.M);
+            return value + 1;
+        }
+
+        private UncheckedIOException corrupt(String message) {
+            return new UncheckedIOException(new IOException("File corrotto, " + message));
+        }
+
+        private Board boardAt(int offset) {
+            int[][] tiles = new int[format.N][format.M];
+            for (int i = 0; i < format.N; i++)
+                for (int j = 0; j < format.M; j++)
+                    tiles[i][j] = cellAt(offset, i * format.M + j);
+            return new Board(tiles, format.N, format.M, format.empty);
+        }
+
+        @Override public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    public static BoardFile readHeader(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) throw new IOException("Formato non riconosciuto: " + path);
+            int N = in.readInt(), M = in.readInt(), empty = in.readInt();
+            int bits = in.readByte();
+            BoardFile format;
+            try {
+                format = new BoardFile(N, M, empty, in.readInt());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Header non valido in " + path + ": " + e.getMessage());
+            }
+            if (format.bits != bits) throw new IOException("Bit per cella non validi in " + path);
+            return format;
+        }
+    }
+
+    // Testo -> binario: "N M empty [maxMoves]" seguito dalle board (ognuna con la riga delle mosse se maxMoves > 0)
+    public static void fromText(Path text, Path binary) throws IOException {
+        try (Scanner sc = new Scanner(Files.newBufferedReader(text))) {
+            Scanner header = new Scanner(sc.nextLine());
+            int N = header.nextInt(), M = header.nextInt(), empty = header.nextInt();
+            int maxMoves = header.hasNextInt() ? header.nextInt() : 0;
+            try (Writer w = new Writer(binary, new BoardFile(N, M, empty, maxMoves))) {
+                while (sc.hasNextInt()) {
+                    int[][] tiles = new int[N][M];
+                    for (int i = 0; i < N; i++) for (int j = 0; j < M; j++) tiles[i][j] = sc.nextInt();
+                    int[] moves = new int[maxMoves > 0 ? sc.nextInt() : 0];
+                    for (int m = 0; m < moves.length; m++) moves[m] = sc.nextInt();
+                    w.write(new Board(tiles, N, M, empty), moves);
+                }
+            }
+        }
+    }
+
+    public static void toText(Path binary, Path text) throws IOException {
+        try (Reader r = new Reader(binary); PrintWriter out = new PrintWriter(Files.newBufferedWriter(text))) {
+            out.println(r.format.N + " " + r.format.M + " " + r.format.empty + (r.format.withSolutions ? " " + r.format.maxMoves : ""));
+            for (Record rec : r) {
+                out.print(rec.board);
+                if (rec.solution != null) {
+                    StringBuilder line = new StringBuilder().append(rec.solution.length);
+                    for (int d : rec.solution) line.append(" ").append(d);
+                    out.println(line);
+                }
+            }
+        }
+    }
+
+    // JSON -> binario: array di board come prodotte da Board.toJSON(), es. [[[1,2],[3,4]],[[4,3],[2,1]]], oppure
+    // array di oggetti {"board": ..., "moves": [...]}; in questo caso maxMoves è la soluzione più lunga del file
+    public static void fromJSON(Path json, Path binary, int N, int M, int empty) throws IOException {
+        String content = new String(Files.readAllBytes(json));
+        List<Board> boards = new ArrayList<>();
+        List<int[]> solutions = new ArrayList<>();
+        boolean withSolutions = content.contains("\"moves\"");
+        if (withSolutions) {
+            Matcher record = Pattern.compile("\\{\\s*\"board\"\\s*:\\s*([\\[\\]\\d,\\s]*?)\\s*,\\s*\"moves\"\\s*:\\s*\\[([\\d,\\s]*)\\]\\s*\\}").matcher(content);
+            while (record.find()) {
+                boards.add(parseBoard(new Scanner(record.group(1).replaceAll("[\\[\\],]", " ")), N, M, empty));
+                Scanner sc = new Scanner(record.group(2).replaceAll(",", " "));
+                List<Integer> moves = new ArrayList<>();
+                while (sc.hasNextInt()) moves.add(sc.nextInt());
+                int[] solution = new int[moves.size()];
+                for (int m = 0; m < solution.length; m++) solution[m] = moves.get(m);
+                solutions.add(solution);
+            }
+        } else {
+            Scanner sc = new Scanner(content.replaceAll("[\\[\\],]", " "));
+            while (sc.hasNextInt()) {
+                boards.add(parseBoard(sc, N, M, empty));
+                solutions.add(new int[0]);
+            }
+        }
+
+        int maxMoves = 0;
+        if (withSolutions) {
+            maxMoves = 1;
+            for (int[] solution : solutions) maxMoves = Math.max(maxMoves, solution.length);
+        }
+        try (Writer w = new Writer(binary, new BoardFile(N, M, empty, maxMoves))) {
+            for (int i = 0; i < boards.size(); i++) w.write(boards.get(i), solutions.get(i));
+        }
+    }
+
+    private static Board parseBoard(Scanner sc, int N, int M, int empty) {
+        int[][] tiles = new int[N][M];
+        for (int i = 0; i < N; i++) for (int j = 0; j < M; j++) tiles[i][j] = sc.nextInt();
+        return new Board(tiles, N, M, empty);
+    }
+
+    public static void toJSON(Path binary, Path json) throws IOException {
+        try (Reader r = new Reader(binary); PrintWriter out = new PrintWriter(Files.newBufferedWriter(json))) {
+            out.print("[");
+            boolean first = true;
+            for (Record rec : r) {
+                if (!first) out.print(",");
+                if (rec.solution == null) {
+                    out.print(rec.board.toJSON());
+                } else {
+                    out.print("{\"board\":" + rec.board.toJSON() + ",\"moves\":" + Arrays.toString(rec.solution).replace(" ", "") + "}");
+                }
+                first = false;
+            }
+            out.println("]");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Uso: BoardFile fromtext|totext|tojson <input> <output>");
+            System.out.println("     BoardFile fromjson <input> <output> N M empty");
+            return;
+        }
+        Path in = Paths.get(args[1]), out = Paths.get(args[2]);
+        switch (args[0]) {
+            case "fromtext": fromText(in, out); break;
+            case "totext":   toText(in, out); break;
+            case "tojson":   toJSON(in, out); break;
+            case "fromjson":
+                fromJSON(in, out, Integer.parseInt(args[3]), Integer.parseInt(args[4]), Integer.parseInt(args[5]));
+                break;
+            default: System.out.println("Comando sconosciuto: " + args[0]);
+        }
+    }
+}
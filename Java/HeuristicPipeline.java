@@ -0,0 +1,85 @@
+/*
+ * Combinazione pigra di più euristiche ammissibili.
+ *
+ * Il valore restituito è il massimo tra le componenti registrate (il massimo di euristiche ammissibili è ancora
+ * ammissibile). Le componenti vanno aggiunte dalla più economica alla più costosa: `evaluate(b, bound)` si ferma
+ * non appena il massimo parziale supera `bound`, così le valutazioni costose (conflitti lineari, pattern database)
+ * vengono pagate solo dai nodi che non sono già esclusi dalla soglia di IDA* o dal miglior f corrente.
+ *
+ * Una componente aggiunta con `refine` non ricalcola tutto: il suo valore è quello della componente precedente più
+ * un incremento (es. Manhattan + conflitti lineari riusa la Manhattan già calcolata). `resume` riprende la valutazione
+ * dopo la prima componente, quando il suo valore è già noto (astarSolver lo calcola all'inserimento in coda).
+ *
+ * Pipeline standard (`standard`):
+ *   1. Manhattan,
+ *   2. + conflitti lineari (ammissibile: `Board.linearConflicts()` conta le pedine da togliere da ogni linea),
+ *   3. pattern database sulle pedine della prima riga (se la tabella ha dimensioni ragionevoli), costruito una sola
+ *      volta per (N, M, empty) e condiviso tra i risolutori.
+ */
+
+import java.util.*;
+
+public class HeuristicPipeline {
+    public interface Heuristic {
+        int estimate(Board b);
+    }
+
+    private final List<Heuristic> components = new ArrayList<>();
+    private final List<Boolean> additive = new ArrayList<>();
+
+    public HeuristicPipeline add(Heuristic h) {
+        components.add(h);
+        additive.add(false);
+        return this;
+    }
+
+    // Componente = valore della componente precedente + h
+    public HeuristicPipeline refine(Heuristic h) {
+        if (components.isEmpty()) throw new IllegalStateException("refine richiede una componente precedente");
+        components.add(h);
+        additive.add(true);
+        return this;
+    }
+
+    public static HeuristicPipeline standard(int N, int M, int empty) {
+        HeuristicPipeline pipeline = new HeuristicPipeline()
+            .add(Board::manhattan)
+            .refine(Board::linearConflicts);
+        int[] pattern = PatternDatabase.defaultPattern(N, M);
+        if (pattern.length > 1) {
+            pipeline.add(PatternDatabase.cached(N, M, empty, pattern)::estimate);
+        }
+        return pipeline;
+    }
+
+    // Solo la prima componente (la più economica)
+    public int cheap(Board b) {
+        return components.get(0).estimate(b);
+    }
+
+    // Valutazione completa: massimo su tutte le componenti
+    public int evaluate(Board b) {
+        return evaluate(b, Integer.MAX_VALUE);
+    }
+
+    // Valutazione pigra: appena il massimo parziale supera bound le componenti restanti non vengono calcolate
+    public int evaluate(Board b, int bound) {
+        int first = cheap(b);
+        return first > bound ? first : run(b, bound, first);
+    }
+
+    // Completa la valutazione partendo dal valore già noto della prima componente
+    public int resume(Board b, int cheapValue) {
+        return run(b, Integer.MAX_VALUE, cheapValue);
+    }
+
+    private int run(Board b, int bound, int first) {
+        int h = first, last = first;
+        for (int i = 1; i < components.size() && h <= bound; i++) {
+            int value = components.get(i).estimate(b);
+            last = additive.get(i) ? last + value : value;
+            h = Math.max(h, last);
+        }
+        return h;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Automa a stati finiti per il pruning delle mosse duplicate (Taylor & Korf).
+ *
+ * IDA* evita i cicli soltanto tramite il set `visited` del cammino corrente, ma genera comunque tutte le
+ * trasposizioni brevi: sequenze di mosse diverse che portano alla stessa configurazione (es. mosse che commutano).
+ * Questa classe costruisce, per una board N x M, un automa sulla storia delle mosse che vieta queste sequenze.
+ *
+ * Costruzione:
+ * ------------
+ * - Per ogni posizione iniziale della cella vuota si esegue una BFS limitata (profondità `maxLength`) sulle stringhe
+ *   di mosse, in ordine "shortlex" (prima per lunghezza, poi lessicografico sull'indice della direzione).
+ *   Una stringa è ridondante in quella posizione se raggiunge una configurazione già raggiunta da una stringa
+ *   precedente nell'ordine; le sue estensioni non vengono espanse perché sarebbero anch'esse ridondanti.
+ * - Una stringa viene vietata solo se non è mai "viva" (non ridondante) in nessuna posizione in cui è applicabile:
+ *   così ogni sottostringa vietata di un cammino ha sempre un'alternativa equivalente più piccola e il cammino
+ *   minimo in ordine shortlex non viene mai potato.
+ * - Le stringhe vietate vengono compilate in un automa di Aho-Corasick: `next(stato, mossa)` restituisce il nuovo
+ *   stato oppure -1 se la mossa chiude una sequenza vietata.
+ *
+ * Uso:
+ * ----
+ * Durante la ricerca ogni nodo porta con sé solo l'intero dello stato corrente dell'automa (nessuna memoria per nodo),
+ * e ogni mossa costa un accesso alla tabella delle transizioni.
+ */
+
+import java.util.*;
+
+public class MoveFSM {
+    public static final int START = 0;  // Stato iniziale (storia vuota)
+    private static final Map<String, MoveFSM> cache = new HashMap<>();
+
+    private final int[][] table;        // table[stato][mossa] -> stato successivo, -1 se vietata
+    private final int forbidden;        // numero di stringhe vietate trovate
+
+    public MoveFSM(int N, int M, int maxLength) {
+        List<String> strings = redundantStrings(N, M, maxLength);
+        this.forbidden = strings.size();
+        this.table = compile(strings);
+    }
+
+    // Automa condiviso per (N, M, maxLength): la BFS di costruzione si esegue una volta sola
+    public static synchronized MoveFSM cached(int N, int M, int maxLength) {
+        String key = N + "x" + M + "/" + maxLength;
+        MoveFSM fsm = cache.get(key);
+        if (fsm == null) {
+            fsm = new MoveFSM(N, M, maxLength);
+            cache.put(key, fsm);
+        }
+        return fsm;
+    }
+
+    // Transizione dell'automa: -1 se la mossa genera un duplicato
+    public int next(int state, int direction) {
+        return table[state][direction];
+    }
+
+    public int states() {
+        return table.length;
+    }
+
+    public int forbiddenStrings() {
+        return forbidden;
+    }
+
+    // BFS limitata su tutte le posizioni della cella vuota, restituisce le stringhe di mosse ridondanti minimali
+    private static List<String> redundantStrings(int N, int M, int maxLength) {
+        final int ENCOUNTERED = 1, LIVE = 2;
+        Map<String, Integer> flags = new HashMap<>();
+
+        for (int blank = 0; blank < N * M; blank++) {
+            // Le pedine sono tutte distinte: l'etichettatura non conta, conta solo la permutazione prodotta
+            char[] start = new char[N * M];
+            for (int k = 0; k < N * M; k++) start[k] = (char) k;
+
+            Set<String> seen = new HashSet<>();
+            seen.add(new String(start));
+            ArrayDeque<Object[]> queue = new ArrayDeque<>();
+            queue.add(new Object[]{start, blank, ""});
+
+            while (!queue.isEmpty()) {
+                Object[] cur = queue.poll();
+                char[] cells = (char[]) cur[0];
+                int hole = (Integer) cur[1];
+                String path = (String) cur[2];
+                if (path.length() == maxLength) continue;
+
+                // I figli vengono generati in ordine di direzione: la coda resta in ordine shortlex
+                for (int d = 0; d < 4; d++) {
+                    int target = Board.step(hole, d, N, M);
+                    if (target < 0) continue;
+
+                    char[] nextCells = cells.clone();
+                    nextCells[hole] = nextCells[target];
+                    nextCells[target] = cells[hole];
+                    String word = path + (char) ('0' + d);
+
+                    boolean fresh = seen.add(new String(nextCells));
+                    flags.merge(word, fresh ? ENCOUNTERED | LIVE : ENCOUNTERED, (a, b) -> a | b);
+                    if (fresh) queue.add(new Object[]{nextCells, target, word});
+                }
+            }
+        }
+
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, Integer> e : flags.entrySet()) {
+            if ((e.getValue() & LIVE) == 0) result.add(e.getKey());
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    // Compila le stringhe vietate in un automa di Aho-Corasick con transizioni complete
+    private static int[][] compile(List<String> strings) {
+        List<int[]> trie = new ArrayList<>();
+        List<Boolean> terminal = new ArrayList<>();
+        trie.add(new int[]{-1, -1, -1, -1});
+        terminal.add(false);
+
+        for (String word : strings) {
+            int node = START;
+            for (int i = 0; i < word.length(); i++) {
+                int d = word.charAt(i) - '0';
+                if (trie.get(node)[d] < 0) {
+                    trie.get(node)[d] = trie.size();
+                    trie.add(new int[]{-1, -1, -1, -1});
+                    terminal.add(false);
+                }
+                node = trie.get(node)[d];
+            }
+            terminal.set(node, true);
+        }
+
+        int size = trie.size();
+        int[][] delta = new int[size][4];
+        int[] fail = new int[size];
+        boolean[] dead = new boolean[size];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+
+        for (int d = 0; d < 4; d++) {
+            int child = trie.get(START)[d];
+            if (child < 0) {
+                delta[START][d] = START;
+            } else {
+                delta[START][d] = child;
+                fail[child] = START;
+                queue.add(child);
+            }
+        }
+
+        // Visita in ampiezza: un nodo è "morto" se lui o un suo suffisso (catena di fail) è una stringa vietata
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            dead[node] = terminal.get(node) || dead[fail[node]];
+            for (int d = 0; d < 4; d++) {
+                int child = trie.get(node)[d];
+                if (child < 0) {
+                    delta[node][d] = delta[fail[node]][d];
+                } else {
+                    delta[node][d] = child;
+                    fail[child] = delta[fail[node]][d];
+                    queue.add(child);
+                }
+            }
+        }
+
+        for (int s = 0; s < size; s++) {
+            for (int d = 0; d < 4; d++) {
+                if (dead[delta[s][d]]) delta[s][d] = -1;
+            }
+        }
+        return delta;
+    }
+}
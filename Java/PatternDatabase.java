@@ -0,0 +1,107 @@
+/*
+ * Pattern database (non additivo) per sliding puzzle N x M.
+ *
+ * Si considera un sottoinsieme di pedine (il "pattern") e si astrae tutto il resto: uno stato astratto è dato dalla
+ * posizione della cella vuota e dalle posizioni delle pedine del pattern. Con una BFS all'indietro a partire dalla
+ * configurazione finale si calcola, per ogni stato astratto, il numero minimo di mosse (di tutte le pedine) necessarie
+ * a sistemare le pedine del pattern. Il valore è un limite inferiore ammissibile e consistente del costo reale.
+ *
+ * La tabella è indicizzata in base (N*M) sulle posizioni [vuota, pedina_1, ..., pedina_k], quindi occupa
+ * (N*M)^(k+1) byte: il pattern va scelto piccolo (vedi `defaultPattern`). La costruzione costa (circa un decimo di secondo
+ * su 4x4, più di un secondo su 5x5), quindi `cached` la esegue una sola volta per board e pattern.
+ */
+
+import java.util.*;
+
+public class PatternDatabase {
+    private static final int MAX_ENTRIES = 1 << 24;  // limite alla dimensione della tabella (16 MB)
+    private static final Map<String, PatternDatabase> cache = new HashMap<>();
+
+    private final int cells;
+    private final int[] pattern;
+    private final int empty;
+    private final byte[] table;
+
+    public PatternDatabase(int N, int M, int empty, int[] pattern) {
+        this.cells = N * M;
+        this.pattern = pattern.clone();
+        this.empty = empty;
+
+        long entries = 1;
+        for (int i = 0; i <= pattern.length; i++) entries *= cells;
+        if (entries > MAX_ENTRIES) throw new IllegalArgumentException("Pattern troppo grande per una board " + N + "x" + M);
+        this.table = new byte[(int) entries];
+        Arrays.fill(table, (byte) -1);
+
+        // Stato finale astratto: ogni valore v sta nella cella v-1
+        int[] goal = new int[pattern.length + 1];
+        goal[0] = empty - 1;
+        for (int i = 0; i < pattern.length; i++) goal[i + 1] = pattern[i] - 1;
+
+        // BFS all'indietro: le mosse sono reversibili, quindi coincide con la BFS in avanti
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        table[index(goal)] = 0;
+        queue.add(goal);
+        while (!queue.isEmpty()) {
+            int[] cur = queue.poll();
+            int dist = table[index(cur)];
+            int hole = cur[0];
+            for (int dir = 0; dir < 4; dir++) {
+                int target = Board.step(hole, dir, N, M);
+                if (target < 0) continue;
+                int[] next = cur.clone();
+                next[0] = target;
+                for (int i = 1; i < next.length; i++) {
+                    if (next[i] == target) next[i] = hole;  // la pedina del pattern scivola nella cella vuota
+                }
+                int idx = index(next);
+                if (table[idx] < 0) {
+                    table[idx] = (byte) Math.min(dist + 1, Byte.MAX_VALUE);
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    // Tabella condivisa per (N, M, empty, pattern): costruita alla prima richiesta
+    public static synchronized PatternDatabase cached(int N, int M, int empty, int[] pattern) {
+        String key = N + "x" + M + "/" + empty + "/" + Arrays.toString(pattern);
+        PatternDatabase db = cache.get(key);
+        if (db == null) {
+            db = new PatternDatabase(N, M, empty, pattern);
+            cache.put(key, db);
+        }
+        return db;
+    }
+
+    // Pattern di default: le pedine della prima riga, ridotte finché la tabella resta entro MAX_ENTRIES
+    public static int[] defaultPattern(int N, int M) {
+        int cells = N * M;
+        int k = Math.min(M, cells - 1);
+        while (k > 0 && Math.pow(cells, k + 1) > MAX_ENTRIES) k--;
+        int[] pattern = new int[k];
+        for (int i = 0; i < k; i++) pattern[i] = i + 1;
+        return pattern;
+    }
+
+    public int estimate(Board b) {
+        int[] positions = new int[pattern.length + 1];
+        for (int i = 0; i < b.firstDimension; i++) {
+            for (int j = 0; j < b.secondDimension; j++) {
+                int value = b.board[i][j];
+                int cell = i * b.secondDimension + j;
+                if (value == empty) positions[0] = cell;
+                for (int k = 0; k < pattern.length; k++) {
+                    if (pattern[k] == value) positions[k + 1] = cell;
+                }
+            }
+        }
+        return table[index(positions)];
+    }
+
+    private int index(int[] positions) {
+        int idx = 0;
+        for (int i = positions.length - 1; i >= 0; i--) idx = idx * cells + positions[i];
+        return idx;
+    }
+}
@@ -16,12 +16,17 @@
  *
  * Dove:
  * - `g(n)` è il numero di mosse effettuate (distanza dal nodo iniziale),
- * - `h(n)` è la somma della distanza di Manhattan e dei conflitti lineari (euristiche),
+ * - `h(n)` è il massimo tra più euristiche ammissibili (Manhattan, Manhattan + conflitti lineari, pattern database),
+ *   calcolato in modo pigro tramite `HeuristicPipeline`,
  * - `peso` è un fattore moltiplicativo configurabile per bilanciare velocità e ottimalità (default: 1.2).
  *
  * Ogni stato viene memorizzato come oggetto `State`, che tiene traccia della board corrente, del numero di mosse
  * e del predecessore, per ricostruire il percorso di soluzione.
  *
+ * Valutazione pigra: i figli entrano nella coda con la sola Manhattan (alzata con il pathmax rispetto al padre,
+ * h(figlio) >= h(padre) - 1). L'euristica completa viene calcolata solo quando lo stato arriva in testa alla coda;
+ * se il suo f cresce oltre quello del nuovo primo della coda, lo stato viene reinserito senza essere espanso.
+ *
  * L’algoritmo restituisce:
  * - Il numero minimo di mosse per risolvere il puzzle (`moves()`),
  * - La sequenza di configurazioni dalla iniziale alla finale (`solution()`), che viene stampata nel metodo `main`.
@@ -37,9 +42,10 @@ public class astarSolver {
 
     static class State implements Comparable<State> {
         Board config; int moves; State prev;
-        State(Board c,int m,State p){config=c;moves=m;prev=p;}
+        int h; int cheap; boolean exact;  // exact = false se h è solo la stima economica (cheap)
+        State(Board c,int m,State p,int h,int cheap,boolean exact){config=c;moves=m;prev=p;this.h=h;this.cheap=cheap;this.exact=exact;}
         public double priority() {
-            return moves + Peso.peso * (config.linearConflicts() + config.manhattan());
+            return moves + Peso.peso * h;
         }
         @Override public int compareTo(State o) {
             return Double.compare(this.priority(), o.priority());
@@ -55,16 +61,32 @@ public class astarSolver {
     }
 
     public astarSolver(Board start,int N,int M,int empty) {
+        this(start, N, M, empty, HeuristicPipeline.standard(N,M,empty));
+    }
+
+    public astarSolver(Board start,int N,int M,int empty,HeuristicPipeline heuristic) {
         Board goal = new Board(generateFinal(N,M,empty),N,M,empty);
         PriorityQueue<State> open = new PriorityQueue<>();
         Set<Board> closed = new HashSet<>();
-        open.add(new State(start,0,null));
+        int startH = heuristic.evaluate(start);
+        open.add(new State(start,0,null,startH,startH,true));
         while(!open.isEmpty()) {
             State cur = open.poll();
             if(cur.config.equals(goal)) { solution=cur; break; }
-            if(!closed.add(cur.config)) continue;
+            if(closed.contains(cur.config)) continue;
+            if(!cur.exact) {
+                // euristica completa solo ora; se lo stato non è più il migliore torna in coda
+                cur.h = Math.max(cur.h, heuristic.resume(cur.config, cur.cheap));
+                cur.exact = true;
+                if(!open.isEmpty() && cur.compareTo(open.peek()) > 0) { open.add(cur); continue; }
+            }
+            closed.add(cur.config);
             for(Board nb: cur.config.neighbors()) {
-                if(!closed.contains(nb)) open.add(new State(nb,cur.moves+1,cur));
+                if(!closed.contains(nb)) {
+                    int cheap = heuristic.cheap(nb);
+                    int h = Math.max(cheap, cur.h - 1);  // pathmax dal padre
+                    open.add(new State(nb,cur.moves+1,cur,h,cheap,false));
+                }
             }
         }
     }
@@ -0,0 +1,188 @@
+/*
+ * Variante "frontier search" (Korf) di A*: nessuna lista closed.
+ *
+ * In astarSolver quasi tutta la memoria va nel set `closed`, che tiene ogni nodo espanso solo per riconoscere i
+ * duplicati e per la catena `prev` usata da solution(). Qui invece si mantiene solo la frontiera aperta:
+ *
+ * - Ogni nodo ha 4 bit di "operatori usati": quando un nodo n viene espanso, ogni figlio c riceve il bit della mossa
+ *   inversa (quella che da c riporterebbe a n). Dato che il grafo è non orientato, un nodo espanso (e cancellato) non
+ *   può più essere rigenerato: i suoi vicini hanno già il bit verso di lui.
+ * - Il percorso non si ricostruisce con `prev`. Ogni nodo si porta dietro il primo stato del suo cammino in cui
+ *   g >= h (circa a metà strada, "middle layer"). Trovato l'obiettivo si conosce la lunghezza L e lo stato
+ *   intermedio m; si risolvono poi ricorsivamente i due sottoproblemi start -> m e m -> goal (divide et impera).
+ *   Con L = 1 la mossa è immediata; per L >= 2 e h ammissibile lo stato intermedio è interno al cammino.
+ * - La terminazione richiede che ogni sottoproblema sia strettamente più corto del problema padre. Manhattan +
+ *   conflitti lineari è ammissibile ma non consistente (una mossa può cambiarla di 3), quindi senza lista closed
+ *   la ricerca può restituire un cammino non minimo o uno stato intermedio coincidente con un estremo. Per questo
+ *   `solve` riceve la lunghezza del padre: se il sottoproblema non risulta più corto, il suo cammino viene
+ *   ricostruito direttamente con una ricerca che conserva i puntatori `prev` (più memoria, ma solo per quel tratto).
+ *
+ * Sottoproblemi con obiettivo arbitrario: le pedine vengono rinominate in modo che l'obiettivo diventi la board
+ * ordinata (il valore di una pedina diventa la sua posizione finale + 1), così Manhattan e conflitti lineari di
+ * `Board` funzionano senza modifiche.
+ *
+ * La ricerca non è pesata (f = g + h): la memoria cresce con la frontiera e non con tutta la regione esplorata, al
+ * prezzo di ripetere le ricerche sui sottoproblemi (fattore logaritmico sul tempo). Dato che h non è consistente, la
+ * lunghezza trovata non è garantita ottima.
+ */
+
+import java.util.*;
+
+public class frontierSolver {
+    private static class Node implements Comparable<Node> {
+        Board config; int g; int h; int used; Board mid;
+        Node prev; int dir;  // solo per la ricostruzione diretta (keepPath)
+        Node(Board c,int g,int h,int used,Board mid){config=c;this.g=g;this.h=h;this.used=used;this.mid=mid;}
+        int f() { return g + h; }
+        @Override public int compareTo(Node o) {
+            return f() != o.f() ? Integer.compare(f(), o.f()) : Integer.compare(o.g, g);
+        }
+    }
+
+    private final Board start;
+    private final int N, M, empty;
+    private List<Integer> directions;
+    private int maxFrontier;
+
+    private int[][] generateFinal(int N,int M) {
+        int[][] f = new int[N][M]; int c=1;
+        for(int i=0;i<N;i++) for(int j=0;j<M;j++) f[i][j] = c++;
+        return f;
+    }
+
+    public frontierSolver(Board start,int N,int M,int empty) {
+        this.start = start;
+        this.N = N;
+        this.M = M;
+        this.empty = empty;
+        Board goal = new Board(generateFinal(N,M),N,M,empty);
+        directions = solve(start, goal, Integer.MAX_VALUE);
+    }
+
+    // Divide et impera: cerca lunghezza e stato intermedio, poi risolve le due metà.
+    // limit è la lunghezza del problema padre: un sottoproblema non più corto viene ricostruito direttamente
+    private List<Integer> solve(Board a, Board b, int limit) {
+        List<Integer> path = new ArrayList<>();
+        if (a.equals(b)) return path;
+
+        // rinomina le pedine: il valore in posizione k di b diventa k + 1
+        int[] rename = new int[N * M + 1];
+        int[] original = new int[N * M + 1];
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < M; j++) {
+                rename[b.board[i][j]] = i * M + j + 1;
+                original[i * M + j + 1] = b.board[i][j];
+            }
+        }
+        int[][] tiles = new int[N][M];
+        for (int i = 0; i < N; i++) for (int j = 0; j < M; j++) tiles[i][j] = rename[a.board[i][j]];
+        Board root = new Board(tiles, N, M, rename[empty]);
+        Node found = search(root, rename[empty], false);
+        if (found == null) return null;
+
+        if (found.g == 1) {
+            path.add(direction(a, b));
+            return path;
+        }
+        if (found.g >= limit || found.mid == null || found.mid.equals(root) || found.mid.equals(found.config)) {
+            // le mosse della cella vuota non dipendono dai nomi delle pedine
+            for (Node n = search(root, rename[empty], true); n.prev != null; n = n.prev) path.add(0, n.dir);
+            return path;
+        }
+
+        int[][] midTiles = new int[N][M];
+        for (int i = 0; i < N; i++) for (int j = 0; j < M; j++) midTiles[i][j] = original[found.mid.board[i][j]];
+        Board mid = new Board(midTiles, N, M, empty);
+
+        List<Integer> left = solve(a, mid, found.g);
+        List<Integer> right = solve(mid, b, found.g);
+        if (left == null || right == null) return null;
+        path.addAll(left);
+        path.addAll(right);
+        return path;
+    }
+
+    // A* senza closed: restituisce il nodo obiettivo (con g = lunghezza e mid = stato intermedio).
+    // Con keepPath ogni nodo tiene anche il padre, così il cammino si legge risalendo da `prev`
+    private Node search(Board root, int emptyValue, boolean keepPath) {
+        Board goal = new Board(generateFinal(N,M),N,M,emptyValue);
+        PriorityQueue<Node> open = new PriorityQueue<>();
+        Map<Board, Node> frontier = new HashMap<>();
+        Node first = new Node(root, 0, h(root), 0, null);
+        open.add(first);
+        frontier.put(root, first);
+
+        while (!open.isEmpty()) {
+            Node cur = open.poll();
+            if (frontier.get(cur.config) != cur) continue;  // voce superata da un g migliore
+            if (cur.config.equals(goal)) return cur;
+            frontier.remove(cur.config);  // espanso: esce dalla memoria
+
+            for (int dir = 0; dir < 4; dir++) {
+                if ((cur.used & (1 << dir)) != 0) continue;  // porta a un nodo già espanso
+                Board nb = cur.config.move(dir);
+                if (nb == null) continue;
+                int back = 1 << Board.inverse(dir);
+                Node existing = frontier.get(nb);
+                if (existing != null) {
+                    existing.used |= back;
+                    if (cur.g + 1 >= existing.g) continue;
+                }
+                int h = existing != null ? existing.h : h(nb);
+                int used = existing != null ? existing.used : back;
+                Board mid = cur.mid != null ? cur.mid : (cur.g + 1 >= h ? nb : null);
+                Node child = new Node(nb, cur.g + 1, h, used, mid);
+                if (keepPath) { child.prev = cur; child.dir = dir; }
+                frontier.put(nb, child);
+                open.add(child);
+            }
+            maxFrontier = Math.max(maxFrontier, frontier.size());
+        }
+        return null;
+    }
+
+    private int h(Board b) {
+        return b.manhattan() + b.linearConflicts();
+    }
+
+    // Direzione della cella vuota per passare da a alla board adiacente b
+    private int direction(Board a, Board b) {
+        for (int dir = 0; dir < 4; dir++) {
+            if (b.equals(a.move(dir))) return dir;
+        }
+        throw new IllegalStateException("Board non adiacenti");
+    }
+
+    // Massimo numero di nodi in frontiera durante tutte le ricerche
+    public int maxFrontier() {
+        return maxFrontier;
+    }
+
+    public int moves() {
+        return directions != null ? directions.size() : -1;
+    }
+
+    public Iterable<Board> solution() {
+        LinkedList<Board> path = new LinkedList<>();
+        if (directions == null) return path;
+        Board b = start;
+        path.add(b);
+        for (int dir : directions) { b = b.move(dir); path.add(b); }
+        return path;
+    }
+
+    public static void main(String[] args){
+        Scanner sc=new Scanner(System.in);
+        System.out.print("Righe N: "); int N=sc.nextInt();
+        System.out.print("Colonne M: "); int M=sc.nextInt();
+        System.out.print("Valore empty: "); int empty=sc.nextInt();
+        int[][] tiles=new int[N][M]; System.out.println("Inserisci matrice:");
+        for(int i=0;i<N;i++) for(int j=0;j<M;j++) tiles[i][j]=sc.nextInt();
+        Board b=new Board(tiles,N,M,empty);
+        if(!b.isSolvable()){ System.out.println("Non risolvibile"); return;}
+        frontierSolver solver=new frontierSolver(b,N,M,empty);
+        for(Board step:solver.solution()){ step.printBoard(); System.out.println(); }
+        System.out.println("Mosse: "+solver.moves());
+        System.out.println("Frontiera massima: "+solver.maxFrontier());
+    }
+}
@@ -18,6 +18,15 @@ In questo caso viene utilizzata una lista visited il cui scopo però è diverso
 La lista dei nodi visitati serve solo durante un ciclo ricorsivo in modo che la "camminata" di IDA* non torni indietro e non si metta
 a ciclare all'infinito, ma percorsi diversi (iterazioni separate) non hanno problemi a considerare gli stessi nodi più volte.
 
+Il set visited però non elimina le trasposizioni brevi (es. mosse che commutano). Per questo la ricerca è guidata anche da
+un automa a stati finiti (MoveFSM) costruito per la board N x M: ogni nodo porta lo stato dell'automa relativo alla storia
+delle mosse e vengono espanse solo le mosse consentite da quello stato. La profondità delle sequenze analizzate è
+configurabile (pruningDepth, 0 disattiva il pruning).
+
+L'euristica h(x) è il massimo di più euristiche ammissibili (HeuristicPipeline), valutate dalla più economica alla più
+costosa fermandosi appena si supera la soglia. I valori vengono propagati con BPMX: un figlio con h(c) alza il padre a
+h(c) - 1 (se così il padre supera la soglia i figli non vengono esplorati), e il padre alza ogni figlio a h(p) - 1.
+
 
 Disposizione di prova: 
 
@@ -34,8 +43,12 @@ Numero di mosse richieste : 9
 import java.util.*;
 
 public class idastar {
+    public static final int DEFAULT_PRUNING_DEPTH = 8;
+
     private State solution;
     private double threshold;
+    private final MoveFSM fsm;
+    private final HeuristicPipeline heuristic;
 
     private int[][] generateFinal(int N,int M,int empty) {
         int[][] f = new int[N][M]; int c=1;
@@ -44,14 +57,25 @@ public class idastar {
     }
 
     public idastar(Board initial,int N,int M,int empty) {
+        this(initial, N, M, empty, DEFAULT_PRUNING_DEPTH);
+    }
+
+    public idastar(Board initial,int N,int M,int empty,int pruningDepth) {
+        this(initial, N, M, empty, pruningDepth, HeuristicPipeline.standard(N, M, empty));
+    }
+
+    public idastar(Board initial,int N,int M,int empty,int pruningDepth,HeuristicPipeline heuristic) {
+        fsm = MoveFSM.cached(N, M, pruningDepth);
+        this.heuristic = heuristic;
         State start = new State(initial,0, null);
-        threshold = start.priority(); // Inizializza la soglia con f(n) = g(n) + h(n)
+        int startH = heuristic.evaluate(initial);
+        threshold = startH; // Inizializza la soglia con f(n) = g(n) + h(n), g = 0
         start.config.printBoard();
         Board finalConfig = new Board(generateFinal(N,M,empty),N,M,empty);
 
         while (true) {
             Set<Board> visited = new HashSet<>();
-            Result result = search(start, threshold, visited, finalConfig);
+            Result result = search(start, startH, MoveFSM.START, threshold, visited, finalConfig);
 
             if (result.found) {
                 solution = result.state;
@@ -82,8 +106,8 @@ public class idastar {
     }
 
     // Funzione di ricerca IDA* (ricerca ricorsiva)
-    private Result search(State current, double threshold, Set<Board> visited, Board finalConfig) {
-        double f = current.priority();  // Calcola f(n) = g(n) + h(n)
+    private Result search(State current, int h, int fsmState, double threshold, Set<Board> visited, Board finalConfig) {
+        double f = current.moves + h;  // Calcola f(n) = g(n) + h(n)
         if (f > threshold) {
             return new Result(false, f, null); //se f supera la soglia non ritorna nulla ma si ferma
         }
@@ -93,22 +117,44 @@ public class idastar {
             return new Result(true, f, current);
         }
 
+        // Genera i vicini della configurazione corrente
+        // Solo le mosse consentite dall'automa: le sequenze duplicate non vengono nemmeno generate
+        List<Board> children = new ArrayList<>();
+        List<Integer> childH = new ArrayList<>();
+        List<Integer> childFsm = new ArrayList<>();
+        int bound = (int) (threshold - current.moves - 1);  // un figlio con h > bound supera la soglia
+        for (int dir = 0; dir < 4; dir++) {
+            int nextFsmState = fsm.next(fsmState, dir);
+            if (nextFsmState < 0) continue;
+            Board neighbor = current.config.move(dir);
+            if (neighbor != null && !visited.contains(neighbor)) {
+                int hc = heuristic.evaluate(neighbor, bound);
+                h = Math.max(h, hc - 1);  // BPMX: figlio -> padre
+                children.add(neighbor);
+                childH.add(hc);
+                childFsm.add(nextFsmState);
+            }
+        }
+
+        // Il padre aggiornato supera già la soglia: inutile esplorare i figli
+        if (current.moves + h > threshold) {
+            return new Result(false, current.moves + h, null);
+        }
+
         visited.add(current.config);
         double min = Double.MAX_VALUE;
 
-        // Esplora i vicini della configurazione corrente
-        for (Board neighbor : current.config.neighbors()) {
-            if (!visited.contains(neighbor)) {
-                State next = new State(neighbor, current.moves + 1, current);
-                Result result = search(next, threshold, visited, finalConfig); //ricorsione -> permette visita in profondità 
+        for (int i = 0; i < children.size(); i++) {
+            State next = new State(children.get(i), current.moves + 1, current);
+            int hc = Math.max(childH.get(i), h - 1);  // BPMX: padre -> figlio
+            Result result = search(next, hc, childFsm.get(i), threshold, visited, finalConfig); //ricorsione -> permette visita in profondità 
 
-                if (result.found) {
-                    return result;  // Se la soluzione è trovata, ritorna
-                }
-
-                // Tieni traccia del minimo threshold trovato
-                min = Math.min(min, result.nextThreshold);
+            if (result.found) {
+                return result;  // Se la soluzione è trovata, ritorna
             }
+
+            // Tieni traccia del minimo threshold trovato
+            min = Math.min(min, result.nextThreshold);
         }
         visited.remove(current.config);  // Backtracking
         return new Result(false, min, null);
@@ -141,7 +187,8 @@ public class idastar {
         for(int i=0;i<N;i++) for(int j=0;j<M;j++) tiles[i][j]=sc.nextInt();
         Board b=new Board(tiles,N,M,empty);
         if(!b.isSolvable()){ System.out.println("Non risolvibile"); return;} 
-        idastar solver=new idastar(b,N,M,empty);
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PRUNING_DEPTH;
+        idastar solver=new idastar(b,N,M,empty,depth);
         for(Board step:solver.solution()){ step.printBoard(); System.out.println(); }
         System.out.println("Mosse: "+solver.moves());
 }
@@ -0,0 +1,298 @@
+/*
+ * Risolutore in tempo reale (RTAA*, Koenig & Likhachev) per board N x M anche molto grandi.
+ *
+ * A* e IDA* restituiscono la soluzione solo a ricerca conclusa. Qui invece l'agente alterna ricerca ed esecuzione:
+ *
+ * 1. Lookahead: una ricerca A* a partire dalla configurazione corrente, limitata da un budget di nodi espansi
+ *    (`nodeBudget` >= 1) e/o di tempo (`timeBudgetMillis`). La radice viene sempre espansa per intero; dopo, la
+ *    scadenza viene controllata a ogni figlio generato e ogni figlio costa O(N + M), quindi il budget limita la
+ *    latenza prima della mossa successiva anche su board enormi.
+ * 2. Apprendimento: detto s' il nodo della frontiera con f minimo, per ogni nodo espanso completamente s si aggiorna
+ *        h(s) = max(h(s), g(s') + h(s') - g(s))
+ *    I valori appresi finiscono in una tabella limitata (`tableCapacity` voci, politica LRU): così la memoria resta
+ *    fissa, al prezzo di poter dimenticare valori già appresi e ripercorrere qualche stato.
+ * 3. Esecuzione: le mosse del cammino verso s' vengono eseguite e passate subito, una alla volta, al `MoveConsumer`.
+ *
+ * Rappresentazione: niente Board durante la ricerca (ogni Board copia la griglia e ricostruisce due Hashtable).
+ * C'è un solo array di celle, che durante il lookahead viene portato sullo stato del nodo da espandere rigiocando le
+ * mosse dalla radice e poi riportato indietro. Ogni nodo tiene solo mossa, padre e valori incrementali:
+ * - Manhattan: cambia solo per la pedina spostata,
+ * - conflitti lineari (come `Board.linearConflicts()`): cambiano solo le due righe (mossa verticale) o le due colonne
+ *   (mossa orizzontale) toccate dalla pedina,
+ * - hash di Zobrist a 64 bit dello stato, aggiornato in O(1): è la chiave della tabella appresa e dei duplicati
+ *   (una collisione è possibile ma trascurabile).
+ *
+ * h(n) di base è Manhattan + conflitti lineari: nessuna precomputazione, quindi la prima mossa arriva dopo un solo
+ * lookahead. La soluzione trovata in generale non è ottima.
+ */
+
+import java.util.*;
+
+public class realtimeSolver {
+    public static final int DEFAULT_NODE_BUDGET = 200;
+    public static final long DEFAULT_TIME_BUDGET = 5;          // millisecondi per lookahead
+    public static final int DEFAULT_TABLE_CAPACITY = 1 << 18;
+
+    // Riceve ogni mossa appena viene decisa: direzione della cella vuota (Board.SU ... Board.DESTRA)
+    public interface MoveConsumer {
+        void accept(int direction);
+    }
+
+    private static class Node implements Comparable<Node> {
+        Node prev; int direction; int g; int h; int manhattan; int conflicts; long hash;
+        Node(Node p,int d,int g,int manhattan,int conflicts,long hash){
+            prev=p;direction=d;this.g=g;this.manhattan=manhattan;this.conflicts=conflicts;this.hash=hash;
+        }
+        int f() { return g + h; }
+        @Override public int compareTo(Node o) {
+            // a parità di f si preferisce il nodo più profondo (più vicino all'obiettivo)
+            return f() != o.f() ? Integer.compare(f(), o.f()) : Integer.compare(o.g, g);
+        }
+    }
+
+    private final Board start;
+    private final int N, M, empty;
+    private final int[] cells;     // celle in ordine di riga: stato corrente (o del nodo in espansione)
+    private int blank;             // indice della cella vuota in cells
+    private final int[] keys;      // buffer per Board.lineConflicts
+    private final List<Integer> directions = new ArrayList<>();
+    private final Map<Long, Integer> learned;
+    private final int nodeBudget;
+    private final long timeBudgetNanos;
+    private boolean solved;
+
+    public realtimeSolver(Board start,int N,int M,int empty,MoveConsumer consumer) {
+        this(start, N, M, empty, DEFAULT_NODE_BUDGET, DEFAULT_TIME_BUDGET, DEFAULT_TABLE_CAPACITY, Integer.MAX_VALUE, consumer);
+    }
+
+    public realtimeSolver(Board start,int N,int M,int empty,int nodeBudget,long timeBudgetMillis,int tableCapacity,
+                          int maxMoves,MoveConsumer consumer) {
+        // con budget nullo il lookahead non espanderebbe nemmeno la radice e il ciclo delle mosse non terminerebbe
+        if (nodeBudget < 1) throw new IllegalArgumentException("nodeBudget deve essere almeno 1: " + nodeBudget);
+        if (timeBudgetMillis < 0) throw new IllegalArgumentException("timeBudgetMillis negativo: " + timeBudgetMillis);
+        if (tableCapacity < 1) throw new IllegalArgumentException("tableCapacity deve essere almeno 1: " + tableCapacity);
+        this.start = start;
+        this.N = N;
+        this.M = M;
+        this.empty = empty;
+        this.nodeBudget = nodeBudget;
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+        this.keys = new int[Math.max(N, M)];
+        this.learned = new LinkedHashMap<Long, Integer>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+                return size() > tableCapacity;
+            }
+        };
+
+        // valori iniziali calcolati per intero una sola volta, poi solo aggiornamenti incrementali
+        this.cells = new int[N * M];
+        int manhattan = 0, conflicts = 0;
+        long hash = 0;
+        for (int k = 0; k < N * M; k++) {
+            cells[k] = start.board[k / M][k % M];
+            if (cells[k] == empty) blank = k;
+            else manhattan += distance(cells[k], k);
+            hash ^= zobrist(k, cells[k]);
+        }
+        for (int i = 0; i < N; i++) conflicts += rowConflicts(i);
+        for (int j = 0; j < M; j++) conflicts += colConflicts(j);
+        Node current = new Node(null, -1, 0, manhattan, 2 * conflicts, hash);
+
+        while (current.manhattan != 0 && directions.size() < maxMoves) {
+            Node target = lookahead(current);
+            if (target == null || target.prev == null) return;  // nessuna mossa possibile
+
+            // ricostruisce il cammino dalla radice a target ed esegue le mosse in ordine
+            LinkedList<Node> path = new LinkedList<>();
+            for (Node n = target; n.prev != null; n = n.prev) path.addFirst(n);
+            for (Node n : path) {
+                if (directions.size() >= maxMoves) break;
+                apply(n.direction);
+                directions.add(n.direction);
+                current = new Node(null, -1, 0, n.manhattan, n.conflicts, n.hash);
+                consumer.accept(n.direction);
+            }
+        }
+        solved = current.manhattan == 0;  // tutte le pedine a posto: anche la cella vuota lo è
+    }
+
+    // A* limitato dal budget; aggiorna h dei nodi espansi e restituisce il nodo verso cui muoversi
+    private Node lookahead(Node current) {
+        long deadline = System.nanoTime() + timeBudgetNanos;
+        PriorityQueue<Node> open = new PriorityQueue<>();
+        Map<Long, Node> closed = new HashMap<>();
+        List<Node> complete = new ArrayList<>();
+        Node root = new Node(null, -1, 0, current.manhattan, current.conflicts, current.hash);
+        root.h = h(root);
+        open.add(root);
+
+        int expanded = 0;
+        boolean timeUp = false;
+        while (!open.isEmpty() && !timeUp && expanded < nodeBudget) {
+            Node cur = open.peek();
+            if (cur.manhattan == 0) return cur;
+            open.poll();
+            if (closed.containsKey(cur.hash)) continue;
+            closed.put(cur.hash, cur);
+            expanded++;
+
+            int[] moves = descend(cur);
+            boolean full = true;
+            for (int dir = 0; dir < 4; dir++) {
+                if (cur.prev != null && dir == Board.inverse(cur.direction)) continue;  // mossa che torna indietro
+                // scadenza controllata a ogni figlio, ma la radice viene sempre espansa per intero (al più 4 figli):
+                // così c'è sempre almeno una mossa e almeno un valore appreso, anche con budget di tempo nullo
+                if (expanded > 1 && System.nanoTime() >= deadline) { full = false; timeUp = true; break; }
+                Node child = child(cur, dir);
+                if (child != null && !closed.containsKey(child.hash)) {
+                    open.add(child);
+                }
+            }
+            ascend(moves);
+            if (full) {
+                complete.add(cur);
+            } else {
+                // espansione interrotta: il nodo resta in frontiera, altrimenti i figli mancanti non sarebbero
+                // rappresentati in open e i valori appresi non sarebbero più limiti validi
+                closed.remove(cur.hash);
+                open.add(cur);
+            }
+        }
+
+        while (!open.isEmpty() && closed.containsKey(open.peek().hash)) open.poll();  // voci già espanse
+        if (open.isEmpty()) return null;
+
+        // apprendimento RTAA*: h(s) = f(s') - g(s) per gli stati espansi con tutti i figli
+        Node best = open.peek();
+        for (Node s : complete) {
+            int value = best.f() - s.g;
+            if (value > s.h) learned.put(s.hash, value);
+        }
+        return best;
+    }
+
+    // Figlio di cur (cells è nello stato di cur) ottenuto spostando la cella vuota in direzione dir, null se esce
+    private Node child(Node cur, int dir) {
+        int hole = blank;
+        int target = Board.step(hole, dir, N, M);
+        if (target < 0) return null;
+        int tile = cells[target];
+        int manhattan = cur.manhattan - distance(tile, target) + distance(tile, hole);
+
+        // solo le due righe (o colonne) toccate dalla pedina: prima e dopo la mossa
+        boolean vertical = dir == Board.SU || dir == Board.GIU;
+        int before = vertical ? rowConflicts(target / M) + rowConflicts(hole / M)
+                              : colConflicts(target % M) + colConflicts(hole % M);
+        swap(target);
+        int after = vertical ? rowConflicts(target / M) + rowConflicts(hole / M)
+                             : colConflicts(target % M) + colConflicts(hole % M);
+        swap(hole);
+
+        long hash = cur.hash ^ zobrist(target, tile) ^ zobrist(hole, tile) ^ zobrist(target, empty) ^ zobrist(hole, empty);
+        Node child = new Node(cur, dir, cur.g + 1, manhattan, cur.conflicts + 2 * (after - before), hash);
+        child.h = h(child);
+        return child;
+    }
+
+    // Porta cells dallo stato della radice a quello di n; restituisce le mosse applicate
+    private int[] descend(Node n) {
+        int[] moves = new int[n.g];
+        for (Node s = n; s.prev != null; s = s.prev) moves[s.g - 1] = s.direction;
+        for (int dir : moves) apply(dir);
+        return moves;
+    }
+
+    // Annulla le mosse di descend, tornando allo stato della radice
+    private void ascend(int[] moves) {
+        for (int i = moves.length - 1; i >= 0; i--) apply(Board.inverse(moves[i]));
+    }
+
+    private void apply(int dir) {
+        swap(Board.step(blank, dir, N, M));
+    }
+
+    // Scambia la cella vuota con la cella target (adiacente)
+    private void swap(int target) {
+        cells[blank] = cells[target];
+        cells[target] = empty;
+        blank = target;
+    }
+
+    // Distanza di Manhattan della pedina tile dalla cella k alla sua cella obiettivo (tile - 1)
+    private int distance(int tile, int k) {
+        return Math.abs(k / M - (tile - 1) / M) + Math.abs(k % M - (tile - 1) % M);
+    }
+
+    private int rowConflicts(int row) {
+        int k = 0;
+        for (int j = 0; j < M; j++) {
+            int tile = cells[row * M + j];
+            if (tile != empty && (tile - 1) / M == row) keys[k++] = (tile - 1) % M;
+        }
+        return Board.lineConflicts(keys, k);
+    }
+
+    private int colConflicts(int col) {
+        int k = 0;
+        for (int i = 0; i < N; i++) {
+            int tile = cells[i * M + col];
+            if (tile != empty && (tile - 1) % M == col) keys[k++] = (tile - 1) / M;
+        }
+        return Board.lineConflicts(keys, k);
+    }
+
+    // Chiave di Zobrist per (cella, valore), calcolata al volo (splitmix64) invece di una tabella (N*M)^2
+    private long zobrist(int cell, int value) {
+        long z = (long) cell * (N * M + 1) + value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private int h(Node n) {
+        Integer value = learned.get(n.hash);
+        int base = n.manhattan + n.conflicts;
+        return value == null ? base : Math.max(value, base);
+    }
+
+    public boolean isSolved() {
+        return solved;
+    }
+
+    public int moves() {
+        return solved ? directions.size() : -1;
+    }
+
+    // Restituisce la sequenza di board dalla iniziale all'ultima raggiunta
+    public Iterable<Board> solution() {
+        LinkedList<Board> path = new LinkedList<>();
+        Board b = start;
+        path.add(b);
+        for (int dir : directions) { b = b.move(dir); path.add(b); }
+        return path;
+    }
+
+    public static void main(String[] args){
+        Scanner sc=new Scanner(System.in);
+        System.out.print("Righe N: "); int N=sc.nextInt();
+        System.out.print("Colonne M: "); int M=sc.nextInt();
+        System.out.print("Valore empty: "); int empty=sc.nextInt();
+        int[][] tiles=new int[N][M]; System.out.println("Inserisci matrice:");
+        for(int i=0;i<N;i++) for(int j=0;j<M;j++) tiles[i][j]=sc.nextInt();
+        Board b=new Board(tiles,N,M,empty);
+        if(!b.isSolvable()){ System.out.println("Non risolvibile"); return;}
+        int nodes = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NODE_BUDGET;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_TIME_BUDGET;
+        String[] names = {"su", "giu", "sinistra", "destra"};
+        long t0 = System.nanoTime();
+        realtimeSolver solver;
+        try {
+            solver = new realtimeSolver(b, N, M, empty, nodes, millis, DEFAULT_TABLE_CAPACITY, Integer.MAX_VALUE,
+                dir -> System.out.printf("%s (%.1f ms)%n", names[dir], (System.nanoTime() - t0) / 1e6));
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+        System.out.println("Mosse: "+solver.moves());
+    }
+}